@@ -3,16 +3,24 @@ package com.pong.library.multilayout;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Color;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
+import android.support.annotation.ColorInt;
+import android.support.annotation.DrawableRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.content.res.AppCompatResources;
 import android.support.v7.widget.LinearLayoutCompat;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityManager;
 import android.view.animation.Animation;
 import android.view.animation.LinearInterpolator;
 import android.view.animation.RotateAnimation;
@@ -34,6 +42,11 @@ public class MultiLayout extends RelativeLayout {
     private static final int DEFAULT_RETRY_BG_COLOUR = Color.GRAY;
     private static final int DEFAULT_TEXT_COLOR = Color.DKGRAY;
     private static final int DEFAULT_BUTTON_TEXT_COLOR = Color.WHITE;
+    private static final int DEFAULT_INDICATOR_COLOR = 0xFFAAAAAA;
+    private static final float DEFAULT_INDICATOR_SIZE = 36;
+
+    private static final long ANNOUNCE_DELAY = 500;
+    private static final long MIN_ANNOUNCE_INTERVAL = 1500;
 
     private String currentView;
 
@@ -50,6 +63,7 @@ public class MultiLayout extends RelativeLayout {
 
     private boolean canRetry;
     private Drawable loadingDrawable;
+    private int loadingIndicatorColor = DEFAULT_INDICATOR_COLOR;
     @LinearLayoutCompat.OrientationMode
     private int loadingOrientation;
 
@@ -62,6 +76,17 @@ public class MultiLayout extends RelativeLayout {
     private TextOption failMessageOption;
     private TextOption buttonTextOption;
 
+    private AccessibilityManager accessibilityManager;
+    private CharSequence lastAnnouncement;
+    private long lastAnnounceTime;
+    private boolean switchingView;
+    private final Runnable announceRunnable = new Runnable() {
+        @Override
+        public void run() {
+            announceCurrentView();
+        }
+    };
+
     public MultiLayout(Context context) {
         super(context);
         init(null);
@@ -102,10 +127,12 @@ public class MultiLayout extends RelativeLayout {
             loadingMessage = getString(a.getText(R.styleable.MultiLayout_loading_msg));
             failMessage = getString(a.getText(R.styleable.MultiLayout_error_msg));
 
-            Drawable loading = a.getDrawable(R.styleable.MultiLayout_loading_indicator);
-            if (loading != null) {
-                loadingDrawable = loading;
+            int loadingResId = a.getResourceId(R.styleable.MultiLayout_loading_indicator, 0);
+            if (loadingResId != 0) {
+                loadingDrawable = AppCompatResources.getDrawable(getContext(), loadingResId);
             }
+            loadingIndicatorColor = a.getColor(R.styleable.MultiLayout_loading_indicator_color,
+                    DEFAULT_INDICATOR_COLOR);
 
             a.recycle();
         }
@@ -227,7 +254,9 @@ public class MultiLayout extends RelativeLayout {
     }
 
     /**
-     * Set loading drawable image that display when loading view show
+     * Set loading drawable image that display when loading view show. Animatable drawable
+     * (e.g. AnimationDrawable, animated-rotate, animated vector) is started instead of rotation
+     * animation.
      *
      * @param drawable image drawable
      */
@@ -235,6 +264,26 @@ public class MultiLayout extends RelativeLayout {
         this.loadingDrawable = drawable;
     }
 
+    /**
+     * Set loading drawable resource that display when loading view show. Animated vector drawable
+     * is supported and played instead of rotation animation. On API 21+ drawable loaded from
+     * resource share constant state with other instances of same resource.
+     *
+     * @param resId drawable resource id
+     */
+    public void setLoadingDrawable(@DrawableRes int resId) {
+        this.loadingDrawable = AppCompatResources.getDrawable(getContext(), resId);
+    }
+
+    /**
+     * Set color of default loading indicator (Default is gray)
+     *
+     * @param color indicator color
+     */
+    public void setLoadingIndicatorColor(@ColorInt int color) {
+        this.loadingIndicatorColor = color;
+    }
+
     /**
      * Show empty view on this layout
      */
@@ -243,7 +292,7 @@ public class MultiLayout extends RelativeLayout {
     }
 
     /**
-     * Show loading view with rotation animation on this layout
+     * Show loading view on this layout. Indicator is rotated, or started when it is Animatable
      */
     public void showLoading() {
         switchView(LOADING);
@@ -270,7 +319,9 @@ public class MultiLayout extends RelativeLayout {
     }
 
     private void switchView(String type) {
+        switchingView = true;
         removeAllViews();
+        switchingView = false;
         this.setVisibility(VISIBLE);
         currentView = type;
 
@@ -288,12 +339,14 @@ public class MultiLayout extends RelativeLayout {
                 this.setVisibility(GONE);
                 break;
         }
+        scheduleAnnouncement();
     }
 
     private ViewGroup initBaseView(int resId) {
         ViewGroup view = (ViewGroup) View.inflate(getContext(), resId, null);
         view.setLayoutParams(new LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
                 ViewGroup.LayoutParams.MATCH_PARENT));
+        ViewCompat.setAccessibilityLiveRegion(view, ViewCompat.ACCESSIBILITY_LIVE_REGION_POLITE);
         return view;
     }
 
@@ -348,14 +401,30 @@ public class MultiLayout extends RelativeLayout {
         if (imageLoading == null) {
             imageLoading = (ImageView) loadingView.findViewById(R.id.image_loading);
         }
-        if (loadingDrawable != null) {
-            imageLoading.setImageDrawable(loadingDrawable);
+        Drawable indicator = (loadingDrawable != null) ? loadingDrawable : getDefaultIndicator();
+        if (imageLoading.getDrawable() != indicator) {
+            imageLoading.setImageDrawable(indicator);
+        }
+        if (indicator instanceof Animatable) {
+            ((Animatable) indicator).start();
+        } else {
+            imageLoading.startAnimation(getRotateAnimation());
         }
-        imageLoading.startAnimation(getRotateAnimation());
 
         return loadingView;
     }
 
+    private Drawable getDefaultIndicator() {
+        Drawable current = imageLoading.getDrawable();
+        if (current instanceof RingIndicatorDrawable
+                && ((RingIndicatorDrawable) current).getColor() == loadingIndicatorColor) {
+            return current;
+        }
+        int size = Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                DEFAULT_INDICATOR_SIZE, getResources().getDisplayMetrics()));
+        return new RingIndicatorDrawable(size, loadingIndicatorColor);
+    }
+
     private void setTextToTextView(TextView textView, String message) {
         if (textView != null && message != null) {
             textView.setText(message);
@@ -412,6 +481,67 @@ public class MultiLayout extends RelativeLayout {
      * --------------------------------------------------------------------------------------------
      */
 
+    /*
+     * Accessibility method------------------------------------------------------------------------
+     */
+    private boolean isAccessibilityEnabled() {
+        if (accessibilityManager == null) {
+            accessibilityManager = (AccessibilityManager) getContext()
+                    .getSystemService(Context.ACCESSIBILITY_SERVICE);
+        }
+        return accessibilityManager != null && accessibilityManager.isEnabled();
+    }
+
+    /*
+     * Merge rapid state changes into one announcement of the settled state, and keep at least
+     * MIN_ANNOUNCE_INTERVAL between two announcements.
+     */
+    private void scheduleAnnouncement() {
+        removeCallbacks(announceRunnable);
+        if (!isAccessibilityEnabled()) {
+            return;
+        }
+        long wait = lastAnnounceTime + MIN_ANNOUNCE_INTERVAL - SystemClock.uptimeMillis();
+        postDelayed(announceRunnable, Math.max(ANNOUNCE_DELAY, wait));
+    }
+
+    private void announceCurrentView() {
+        if (!isAccessibilityEnabled()) {
+            return;
+        }
+        CharSequence message = getMessage((getChildCount() > 0) ? getChildAt(0) : null);
+        if (TextUtils.isEmpty(message)) {
+            lastAnnouncement = null;
+            return;
+        }
+        if (!TextUtils.equals(message, lastAnnouncement)) {
+            lastAnnouncement = message;
+            lastAnnounceTime = SystemClock.uptimeMillis();
+            announceForAccessibility(message);
+        }
+    }
+
+    /*
+     * Read message from the attached state view, so views from overridden create methods are
+     * announced too. Custom view without default text id is announced by its content description.
+     */
+    private CharSequence getMessage(@Nullable View view) {
+        if (view == null) {
+            return null;
+        }
+        int[] messageIds = {R.id.text_empty_list, R.id.text_loading, R.id.text_fail};
+        for (int id : messageIds) {
+            View textView = view.findViewById(id);
+            if (textView instanceof TextView) {
+                return ((TextView) textView).getText();
+            }
+        }
+        return view.getContentDescription();
+    }
+    /*
+     * --------------------------------------------------------------------------------------------
+     */
+
     protected Animation getRotateAnimation() {
         RotateAnimation rotateAnimation = new RotateAnimation(0, 360,
                 Animation.RELATIVE_TO_SELF, .5f, Animation.RELATIVE_TO_SELF, .5f);
@@ -427,12 +557,24 @@ public class MultiLayout extends RelativeLayout {
             if (imageLoading != null && imageLoading.getAnimation() != null) {
                 imageLoading.getAnimation().cancel();
             }
+            if (imageLoading != null && imageLoading.getDrawable() instanceof Animatable) {
+                ((Animatable) imageLoading.getDrawable()).stop();
+            }
             this.setVisibility(GONE);
             currentView = NONE;
             super.removeAllViews();
+            if (!switchingView) {
+                scheduleAnnouncement();
+            }
         }
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(announceRunnable);
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
@@ -445,6 +587,7 @@ public class MultiLayout extends RelativeLayout {
         ss.canRetry = this.canRetry;
         ss.loadingOrientation = this.loadingOrientation;
         ss.retryButtonBackgroundColor = this.retryButtonBackgroundColor;
+        ss.loadingIndicatorColor = this.loadingIndicatorColor;
         ss.emptyMessageOption = this.emptyMessageOption;
         ss.loadingMessageOption = this.loadingMessageOption;
         ss.failMessageOption = this.failMessageOption;
@@ -467,6 +610,7 @@ public class MultiLayout extends RelativeLayout {
         this.canRetry = ss.canRetry;
         this.loadingOrientation = ss.loadingOrientation;
         this.retryButtonBackgroundColor = ss.retryButtonBackgroundColor;
+        this.loadingIndicatorColor = ss.loadingIndicatorColor;
         this.emptyMessageOption = ss.emptyMessageOption;
         this.loadingMessageOption = ss.loadingMessageOption;
         this.failMessageOption = ss.failMessageOption;
@@ -484,6 +628,7 @@ public class MultiLayout extends RelativeLayout {
         boolean canRetry;
         int loadingOrientation;
         int retryButtonBackgroundColor;
+        int loadingIndicatorColor;
 
         TextOption emptyMessageOption;
         TextOption loadingMessageOption;
@@ -508,6 +653,7 @@ public class MultiLayout extends RelativeLayout {
 
             this.loadingOrientation = in.readInt();
             this.retryButtonBackgroundColor = in.readInt();
+            this.loadingIndicatorColor = in.readInt();
 
             this.emptyMessageOption = in.readParcelable(TextOption.class.getClassLoader());
             this.loadingMessageOption = in.readParcelable(TextOption.class.getClassLoader());
@@ -529,6 +675,7 @@ public class MultiLayout extends RelativeLayout {
 
             out.writeInt(this.loadingOrientation);
             out.writeInt(this.retryButtonBackgroundColor);
+            out.writeInt(this.loadingIndicatorColor);
 
             out.writeParcelable(this.emptyMessageOption, 0);
             out.writeParcelable(this.loadingMessageOption, 0);
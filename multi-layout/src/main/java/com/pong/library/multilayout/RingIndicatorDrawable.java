@@ -0,0 +1,149 @@
+package com.pong.library.multilayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.SweepGradient;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+/**
+ * Default loading indicator. The sweep gradient ring is rasterized once into a bitmap shared by
+ * every instance with the same size and color, so drawing (and rotating) it only blits that bitmap.
+ */
+class RingIndicatorDrawable extends Drawable {
+    private static final int MAX_CACHED_RINGS = 8;
+    private static final float INNER_RADIUS_RATIO = 3f;
+    private static final float THICKNESS_RATIO = 20f;
+
+    private static final LruCache<String, Bitmap> RING_CACHE =
+            new LruCache<String, Bitmap>(MAX_CACHED_RINGS);
+
+    private final RingState state;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private Bitmap ring;
+
+    /**
+     * @param size  indicator width and height in pixel
+     * @param color ring color, the ring fades from transparent to this color
+     */
+    RingIndicatorDrawable(int size, @ColorInt int color) {
+        this(new RingState(size, color));
+    }
+
+    private RingIndicatorDrawable(RingState state) {
+        this.state = state;
+    }
+
+    int getColor() {
+        return state.color;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (ring == null) {
+            ring = obtainRing(state.size, state.color);
+        }
+        Rect bounds = getBounds();
+        if (ring != null && !bounds.isEmpty()) {
+            canvas.drawBitmap(ring, null, bounds, paint);
+        }
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return state.size;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return state.size;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (paint.getAlpha() != alpha) {
+            paint.setAlpha(alpha);
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return paint.getAlpha();
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return state;
+    }
+
+    private static Bitmap obtainRing(int size, int color) {
+        if (size <= 0) {
+            return null;
+        }
+        String key = size + ":" + color;
+        Bitmap bitmap = RING_CACHE.get(key);
+        if (bitmap == null) {
+            bitmap = createRing(size, color);
+            RING_CACHE.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private static Bitmap createRing(int size, int color) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        float center = size / 2f;
+        float thickness = size / THICKNESS_RATIO;
+        float radius = size / INNER_RADIUS_RATIO + thickness / 2f;
+
+        Paint ringPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        ringPaint.setStyle(Paint.Style.STROKE);
+        ringPaint.setStrokeWidth(thickness);
+        ringPaint.setShader(new SweepGradient(center, center,
+                color & 0x00FFFFFF, color));
+        canvas.drawCircle(center, center, radius, ringPaint);
+
+        return bitmap;
+    }
+
+    private static class RingState extends ConstantState {
+        final int size;
+        final int color;
+
+        RingState(int size, int color) {
+            this.size = size;
+            this.color = color;
+        }
+
+        @NonNull
+        @Override
+        public Drawable newDrawable() {
+            return new RingIndicatorDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+    }
+}